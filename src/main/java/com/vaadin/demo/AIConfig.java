@@ -1,5 +1,7 @@
 package com.vaadin.demo;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import dev.langchain4j.data.document.loader.FileSystemDocumentLoader;
 import dev.langchain4j.data.document.loader.github.GitHubDocumentLoader;
@@ -9,6 +11,7 @@ import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.rag.content.retriever.ContentRetriever;
 import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
 import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.bgesmallenv15q.BgeSmallEnV15QuantizedEmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
 import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
@@ -31,6 +34,13 @@ public class AIConfig {
 
     private static final Logger log = LoggerFactory.getLogger(AIConfig.class);
 
+    /*
+     * Model names used in the embedding cache keys. Change them only when the
+     * model itself changes, as that invalidates all cached embeddings.
+     */
+    private static final String OPENAI_EMBEDDING_MODEL = "text-embedding-3-small";
+    private static final String DEFAULT_EMBEDDING_MODEL = "bge-small-en-v1.5-q";
+
     private final ValidateProperties validateProperties;
 
     public AIConfig(ValidateProperties validateProperties) {
@@ -70,18 +80,42 @@ public class AIConfig {
         }
     }
 
+    /*
+     * Define the embedding model to use. When ai.embedding-cache.file is set, the model is
+     * wrapped with a persistent cache keyed by model name and segment text, so unchanged
+     * text is not embedded again on re-imports, store rebuilds or store migrations.
+     */
     @Bean
     EmbeddingModel embeddingModel(@Value("${open-ai.embedding-model.api-key}") String apiKey) {
+        String cacheFile = validateProperties.getEmbeddingCacheFile();
+        EmbeddingModel embeddingModel;
+        String modelName;
         if ("openai".equals(validateProperties.getEmbeddingModelType()) && !apiKey.isEmpty()) {
             log.info("Using OpenAI embedding model");
-            return OpenAiEmbeddingModel.builder()
+            modelName = OPENAI_EMBEDDING_MODEL;
+            embeddingModel = OpenAiEmbeddingModel.builder()
                 .apiKey(apiKey)
-                .modelName("text-embedding-3-small")
+                .modelName(modelName)
                 .build();
         } else {
             log.info("Using default embedding model");
-            return null;
+            modelName = DEFAULT_EMBEDDING_MODEL;
+            // Without a cache, leave the default model to be loaded by LangChain4j
+            embeddingModel = cacheFile.isEmpty() ? null : new BgeSmallEnV15QuantizedEmbeddingModel();
         }
+
+        if (cacheFile.isEmpty()) {
+            return embeddingModel;
+        }
+        PersistentEmbeddingCache cache;
+        try {
+            cache = new PersistentEmbeddingCache(Path.of(cacheFile));
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Embedding cache {} is not available, continuing without it: {}", cacheFile, e.getMessage());
+            return embeddingModel;
+        }
+        log.info("Using embedding cache {}", cacheFile);
+        return new CachingEmbeddingModel(embeddingModel, modelName, cache);
     }
 
     /*
@@ -164,9 +198,13 @@ public class AIConfig {
     /*
      * Define the content retriever to use. This is used to retrieve the relevant parts of a documents
      * from the embedding store before answering questions.
+     * Queries only look up the embedding cache, so user questions are not written to it.
      */
     @Bean
     ContentRetriever contentRetriever(EmbeddingStore<TextSegment> embeddingStore, EmbeddingModel embeddingModel) {
+        if (embeddingModel instanceof CachingEmbeddingModel cachingEmbeddingModel) {
+            embeddingModel = cachingEmbeddingModel.lookupOnly();
+        }
         if (embeddingModel != null) {
             return EmbeddingStoreContentRetriever.builder()
                 .embeddingStore(embeddingStore)
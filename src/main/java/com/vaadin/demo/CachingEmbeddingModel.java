@@ -0,0 +1,99 @@
+package com.vaadin.demo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Embedding model that looks up segments in a {@link PersistentEmbeddingCache}
+ * before delegating, so text that was embedded before with the same model is
+ * not sent to the model again. Used for both document import and queries;
+ * {@link #lookupOnly()} gives a view for queries that does not add new
+ * embeddings to the cache, so chat questions are not persisted.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingEmbeddingModel.class);
+
+    private final EmbeddingModel delegate;
+    private final String modelName;
+    private final PersistentEmbeddingCache cache;
+    private final boolean storeOnMiss;
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, String modelName, PersistentEmbeddingCache cache) {
+        this(delegate, modelName, cache, true);
+    }
+
+    private CachingEmbeddingModel(EmbeddingModel delegate, String modelName, PersistentEmbeddingCache cache, boolean storeOnMiss) {
+        this.delegate = delegate;
+        this.modelName = modelName;
+        this.cache = cache;
+        this.storeOnMiss = storeOnMiss;
+    }
+
+    /*
+     * Return a view on the same cache that looks embeddings up but never stores them.
+     */
+    public CachingEmbeddingModel lookupOnly() {
+        return new CachingEmbeddingModel(delegate, modelName, cache, false);
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        byte[][] keys = new byte[textSegments.size()][];
+        Embedding[] embeddings = new Embedding[textSegments.size()];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < textSegments.size(); i++) {
+            keys[i] = PersistentEmbeddingCache.key(modelName, textSegments.get(i).text());
+            embeddings[i] = cache.get(keys[i]);
+            if (embeddings[i] == null) {
+                missing.add(i);
+            }
+        }
+        log.debug("Embedding cache: {} hits, {} misses", textSegments.size() - missing.size(), missing.size());
+
+        if (missing.isEmpty()) {
+            return Response.from(Arrays.asList(embeddings));
+        }
+
+        List<TextSegment> toEmbed = missing.stream().map(textSegments::get).toList();
+        Response<List<Embedding>> response = delegate.embedAll(toEmbed);
+        List<Embedding> computed = response.content();
+        for (int i = 0; i < missing.size(); i++) {
+            int index = missing.get(i);
+            embeddings[index] = computed.get(i);
+            if (!storeOnMiss) {
+                continue;
+            }
+            try {
+                cache.put(keys[index], computed.get(i));
+            } catch (IOException e) {
+                log.warn("Could not store embedding in cache: {}", e.getMessage());
+            }
+        }
+        return Response.from(Arrays.asList(embeddings), response.tokenUsage(), response.finishReason());
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+
+    /*
+     * Close the cache. Lookup-only views share the cache of the model they were
+     * created from, so closing a view leaves the cache open.
+     */
+    @Override
+    public void close() throws IOException {
+        if (storeOnMiss) {
+            cache.close();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.vaadin.demo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import dev.langchain4j.data.embedding.Embedding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only, memory-mapped store of embeddings keyed by the SHA-256 hash of
+ * (model name, segment text).
+ *
+ * File layout: a 16 byte header (magic, version, end of the last committed
+ * record) followed by records of [32 byte key][int dimension][int CRC32]
+ * [float vector]. The checksum covers the key, dimension and vector. Records
+ * are not forced to disk one by one, so after a crash the header may point
+ * past a record that only partly reached the disk; on open, the file is cut
+ * back to the last record whose checksum matches.
+ */
+public class PersistentEmbeddingCache implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistentEmbeddingCache.class);
+
+    static final int INITIAL_CAPACITY = 1 << 20;
+
+    private static final int MAGIC = 0x454d4243; // "EMBC"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final int END_OFFSET = 8;
+    private static final int KEY_SIZE = 32;
+    private static final int DIMENSION_OFFSET = KEY_SIZE;
+    private static final int CHECKSUM_OFFSET = DIMENSION_OFFSET + Integer.BYTES;
+    private static final int VECTOR_OFFSET = CHECKSUM_OFFSET + Integer.BYTES;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final Map<ByteBuffer, Integer> index = new HashMap<>();
+    private MappedByteBuffer buffer;
+    private int end;
+
+    public PersistentEmbeddingCache(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            this.lock = tryLock();
+            long size = channel.size();
+            if (size == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(HEADER_SIZE)
+                    .flip();
+                channel.write(header, 0);
+                size = HEADER_SIZE;
+            } else if (!hasValidHeader(size)) {
+                throw new IllegalStateException("File " + file + " is not a supported embedding cache");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, INITIAL_CAPACITY));
+            end = (int) buffer.getLong(END_OFFSET);
+            loadIndex();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        log.info("Opened embedding cache {} with {} embeddings", file, index.size());
+    }
+
+    private FileLock tryLock() throws IOException {
+        FileLock fileLock;
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            throw new IllegalStateException("Embedding cache " + file + " is already open in this process", e);
+        }
+        if (fileLock == null) {
+            throw new IllegalStateException("Embedding cache " + file + " is in use by another process");
+        }
+        return fileLock;
+    }
+
+    private boolean hasValidHeader(long size) throws IOException {
+        if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        long committedEnd = header.getLong(END_OFFSET);
+        return header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+            && committedEnd >= HEADER_SIZE && committedEnd <= size;
+    }
+
+    /*
+     * Scan the committed records to rebuild the key to offset index.
+     * The file is cut back to the last valid record if a broken one is found.
+     */
+    private void loadIndex() {
+        int position = HEADER_SIZE;
+        while (position < end) {
+            int dimension = position + VECTOR_OFFSET <= end ? buffer.getInt(position + DIMENSION_OFFSET) : 0;
+            long next = position + recordSize(dimension);
+            if (dimension <= 0 || next > end
+                || buffer.getInt(position + CHECKSUM_OFFSET) != checksum(position, dimension)) {
+                log.warn("Embedding cache {} has an invalid record at offset {}, dropping the remaining {} bytes",
+                    file, position, end - position);
+                end = position;
+                buffer.putLong(END_OFFSET, end);
+                return;
+            }
+            byte[] key = new byte[KEY_SIZE];
+            buffer.get(position, key);
+            index.put(ByteBuffer.wrap(key), position);
+            position = (int) next;
+        }
+    }
+
+    private int checksum(int position, int dimension) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position, CHECKSUM_OFFSET));
+        crc.update(buffer.slice(position + VECTOR_OFFSET, dimension * Float.BYTES));
+        return (int) crc.getValue();
+    }
+
+    /*
+     * Compute the cache key for a text embedded by the given model.
+     */
+    public static byte[] key(String modelName, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /*
+     * Return the cached embedding for the key, or null if there is none.
+     */
+    public synchronized Embedding get(byte[] key) {
+        Integer position = index.get(ByteBuffer.wrap(key));
+        if (position == null) {
+            return null;
+        }
+        int dimension = buffer.getInt(position + DIMENSION_OFFSET);
+        float[] vector = new float[dimension];
+        int vectorStart = position + VECTOR_OFFSET;
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = buffer.getFloat(vectorStart + i * Float.BYTES);
+        }
+        return Embedding.from(vector);
+    }
+
+    /*
+     * Append the embedding for the key, unless it is already cached.
+     */
+    public synchronized void put(byte[] key, Embedding embedding) throws IOException {
+        if (index.containsKey(ByteBuffer.wrap(key))) {
+            return;
+        }
+        float[] vector = embedding.vector();
+        long recordSize = recordSize(vector.length);
+        ensureCapacity(recordSize);
+
+        int position = end;
+        buffer.put(position, key);
+        buffer.putInt(position + DIMENSION_OFFSET, vector.length);
+        int vectorStart = position + VECTOR_OFFSET;
+        for (int i = 0; i < vector.length; i++) {
+            buffer.putFloat(vectorStart + i * Float.BYTES, vector[i]);
+        }
+        buffer.putInt(position + CHECKSUM_OFFSET, checksum(position, vector.length));
+        end += (int) recordSize;
+        buffer.putLong(END_OFFSET, end);
+        index.put(ByteBuffer.wrap(key.clone()), position);
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    private void ensureCapacity(long recordSize) throws IOException {
+        long required = end + recordSize;
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        long capacity = Math.min(Math.max(required, (long) buffer.capacity() * 2), Integer.MAX_VALUE);
+        if (required > capacity) {
+            throw new IOException("Embedding cache " + file + " is full");
+        }
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private static long recordSize(int dimension) {
+        return VECTOR_OFFSET + (long) dimension * Float.BYTES;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        if (lock.isValid()) {
+            lock.release();
+        }
+        channel.close();
+    }
+}
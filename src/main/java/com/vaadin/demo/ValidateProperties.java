@@ -28,6 +28,9 @@ public class ValidateProperties {
     @Value("${ai.docs.source.type}")
     private String docsSourceType;
 
+    @Value("${ai.embedding-cache.file:}")
+    private String embeddingCacheFile;
+
     @Value("${ai.injest.batch.size}")
     private int injestBatchSize;
 
@@ -76,6 +79,14 @@ public class ValidateProperties {
         this.docsSourceType = docsSourceType;
     }
 
+    public String getEmbeddingCacheFile() {
+        return embeddingCacheFile;
+    }
+
+    public void setEmbeddingCacheFile(String embeddingCacheFile) {
+        this.embeddingCacheFile = embeddingCacheFile;
+    }
+
     public int getInjestBatchSize() {
         return injestBatchSize;
     }
@@ -0,0 +1,83 @@
+package com.vaadin.demo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CachingEmbeddingModelTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<String> embeddedTexts = new ArrayList<>();
+
+    /*
+     * Embeds each text as a vector holding its length, and records what was embedded.
+     */
+    private final EmbeddingModel delegate = textSegments -> {
+        List<Embedding> embeddings = new ArrayList<>();
+        for (TextSegment segment : textSegments) {
+            embeddedTexts.add(segment.text());
+            embeddings.add(Embedding.from(new float[] {segment.text().length()}));
+        }
+        return Response.from(embeddings);
+    };
+
+    @Test
+    void delegateIsOnlyCalledForMisses() throws IOException {
+        try (CachingEmbeddingModel model = new CachingEmbeddingModel(delegate, "model", cache())) {
+            model.embedAll(segments("a", "bb"));
+            embeddedTexts.clear();
+
+            List<Embedding> embeddings = model.embedAll(segments("a", "ccc", "bb")).content();
+
+            assertEquals(List.of("ccc"), embeddedTexts);
+            assertEquals(3, embeddings.size());
+            assertArrayEquals(new float[] {1f}, embeddings.get(0).vector());
+            assertArrayEquals(new float[] {3f}, embeddings.get(1).vector());
+            assertArrayEquals(new float[] {2f}, embeddings.get(2).vector());
+        }
+    }
+
+    @Test
+    void lookupOnlyDoesNotStoreMisses() throws IOException {
+        try (CachingEmbeddingModel model = new CachingEmbeddingModel(delegate, "model", cache())) {
+            model.embedAll(segments("a"));
+            EmbeddingModel queries = model.lookupOnly();
+            embeddedTexts.clear();
+
+            queries.embedAll(segments("a", "question"));
+            queries.embedAll(segments("question"));
+
+            assertEquals(List.of("question", "question"), embeddedTexts);
+        }
+    }
+
+    @Test
+    void closingLookupOnlyViewKeepsCacheOpen() throws IOException {
+        try (CachingEmbeddingModel model = new CachingEmbeddingModel(delegate, "model", cache())) {
+            model.lookupOnly().close();
+
+            assertThrows(IllegalStateException.class, this::cache);
+        }
+    }
+
+    private PersistentEmbeddingCache cache() throws IOException {
+        return new PersistentEmbeddingCache(tempDir.resolve("cache.bin"));
+    }
+
+    private static List<TextSegment> segments(String... texts) {
+        return List.of(texts).stream().map(TextSegment::from).toList();
+    }
+}
@@ -0,0 +1,160 @@
+package com.vaadin.demo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import dev.langchain4j.data.embedding.Embedding;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PersistentEmbeddingCacheTest {
+
+    private static final int END_OFFSET = 8;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void embeddingsAreAvailableAfterReopen() throws IOException {
+        Path file = tempDir.resolve("cache.bin");
+        try (PersistentEmbeddingCache cache = new PersistentEmbeddingCache(file)) {
+            cache.put(PersistentEmbeddingCache.key("model", "hello"), Embedding.from(new float[] {1f, 2f, 3f}));
+            cache.put(PersistentEmbeddingCache.key("model", "hello"), Embedding.from(new float[] {9f, 9f, 9f}));
+        }
+
+        try (PersistentEmbeddingCache cache = new PersistentEmbeddingCache(file)) {
+            assertEquals(1, cache.size());
+            assertArrayEquals(new float[] {1f, 2f, 3f}, cache.get(PersistentEmbeddingCache.key("model", "hello")).vector());
+            assertNull(cache.get(PersistentEmbeddingCache.key("other-model", "hello")));
+        }
+    }
+
+    @Test
+    void fileGrowsPastInitialCapacity() throws IOException {
+        Path file = tempDir.resolve("cache.bin");
+        int count = PersistentEmbeddingCache.INITIAL_CAPACITY / (384 * Float.BYTES) + 100;
+        try (PersistentEmbeddingCache cache = new PersistentEmbeddingCache(file)) {
+            for (int i = 0; i < count; i++) {
+                cache.put(PersistentEmbeddingCache.key("model", "text " + i), Embedding.from(vector(384, i)));
+            }
+        }
+        assertTrue(Files.size(file) > PersistentEmbeddingCache.INITIAL_CAPACITY);
+
+        try (PersistentEmbeddingCache cache = new PersistentEmbeddingCache(file)) {
+            assertEquals(count, cache.size());
+            assertArrayEquals(vector(384, 0), cache.get(PersistentEmbeddingCache.key("model", "text 0")).vector());
+            assertArrayEquals(vector(384, count - 1), cache.get(PersistentEmbeddingCache.key("model", "text " + (count - 1))).vector());
+        }
+    }
+
+    @Test
+    void truncatedRecordIsDropped() throws IOException {
+        Path file = tempDir.resolve("cache.bin");
+        writeRecords(file, 3);
+        setEnd(file, readEnd(file) - 10);
+
+        try (PersistentEmbeddingCache cache = new PersistentEmbeddingCache(file)) {
+            assertEquals(2, cache.size());
+            assertNull(cache.get(PersistentEmbeddingCache.key("model", "text 2")));
+            cache.put(PersistentEmbeddingCache.key("model", "text 3"), Embedding.from(vector(4, 3)));
+        }
+
+        try (PersistentEmbeddingCache cache = new PersistentEmbeddingCache(file)) {
+            assertEquals(3, cache.size());
+            assertArrayEquals(vector(4, 3), cache.get(PersistentEmbeddingCache.key("model", "text 3")).vector());
+        }
+    }
+
+    @Test
+    void corruptRecordIsDropped() throws IOException {
+        Path file = tempDir.resolve("cache.bin");
+        writeRecords(file, 3);
+        long end = readEnd(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(-5).flip(), end + 32);
+        }
+        setEnd(file, end + 32 + 2 * Integer.BYTES + 4 * Float.BYTES);
+
+        try (PersistentEmbeddingCache cache = new PersistentEmbeddingCache(file)) {
+            assertEquals(3, cache.size());
+        }
+        assertEquals(end, readEnd(file));
+    }
+
+    @Test
+    void recordWithPartlyWrittenVectorIsDropped() throws IOException {
+        Path file = tempDir.resolve("cache.bin");
+        writeRecords(file, 3);
+        long end = readEnd(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(2 * Float.BYTES), end - 2 * Float.BYTES);
+        }
+
+        try (PersistentEmbeddingCache cache = new PersistentEmbeddingCache(file)) {
+            assertEquals(2, cache.size());
+            assertNull(cache.get(PersistentEmbeddingCache.key("model", "text 2")));
+            assertArrayEquals(vector(4, 1), cache.get(PersistentEmbeddingCache.key("model", "text 1")).vector());
+        }
+    }
+
+    @Test
+    void unknownFileIsRejectedAndLeftUnchanged() throws IOException {
+        Path file = tempDir.resolve("cache.bin");
+        Files.writeString(file, "not a cache");
+
+        assertThrows(IllegalStateException.class, () -> new PersistentEmbeddingCache(file));
+        assertEquals("not a cache", Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void fileIsLockedWhileOpen() throws IOException {
+        Path file = tempDir.resolve("cache.bin");
+        try (PersistentEmbeddingCache cache = new PersistentEmbeddingCache(file)) {
+            assertThrows(IllegalStateException.class, () -> new PersistentEmbeddingCache(file));
+        }
+
+        try (PersistentEmbeddingCache cache = new PersistentEmbeddingCache(file)) {
+            assertEquals(0, cache.size());
+        }
+    }
+
+    private static void writeRecords(Path file, int count) throws IOException {
+        try (PersistentEmbeddingCache cache = new PersistentEmbeddingCache(file)) {
+            for (int i = 0; i < count; i++) {
+                cache.put(PersistentEmbeddingCache.key("model", "text " + i), Embedding.from(vector(4, i)));
+            }
+        }
+    }
+
+    private static long readEnd(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer end = ByteBuffer.allocate(Long.BYTES);
+            channel.read(end, END_OFFSET);
+            return end.getLong(0);
+        }
+    }
+
+    private static void setEnd(Path file, long end) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(end).flip(), END_OFFSET);
+        }
+    }
+
+    private static float[] vector(int dimension, int seed) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = seed + i / 1000f;
+        }
+        return vector;
+    }
+}